@@ -0,0 +1,85 @@
+package com.primeaeterna.callosum.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The resumable slot handler is responsible for responding to any TCP
+ * connection with a slot number and a resumption token. Unlike
+ * {@link SlotHandler}, it waits for the client to speak first: either an empty
+ * line {@code \r\n} for a new slot, or a resumption token from a previous
+ * connection followed by {@code \r\n} to reclaim its slot. If that previous
+ * connection is still open, it is closed in favor of the new one. It then
+ * responds with slot number, a space, resumption token and {@code \r\n}, and
+ * removes itself from the pipeline.
+ *
+ * Not sharable, as every connection needs its own instance. Instances should
+ * share the same {@link SlotLeases}.
+ */
+public class ResumableSlotHandler extends ByteToMessageDecoder
+{
+    private static byte[] CRLF = "\r\n".getBytes();
+    private static int MAX_LINE_LENGTH = String.valueOf(Long.MAX_VALUE).length() + 2; // token + \r\n
+    private SlotLeases leases;
+
+    /**
+     * Creates a new {@link ResumableSlotHandler} with provided slot leasing.
+     * @param leases slot leases manager
+     */
+    public ResumableSlotHandler(SlotLeases leases)
+    {
+        super();
+        this.leases = leases;
+    }
+
+    /**
+     * Once the client line is received, respond with slot number, resumption
+     * token and {@code \r\n}, then ensure lease is released once connection
+     * closes in any way.
+     */
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out)
+    {
+        final int eol = in.indexOf(in.readerIndex(), in.writerIndex(), (byte) '\n');
+        if (eol < 0)
+        {
+            if (in.readableBytes() >= MAX_LINE_LENGTH)
+            {
+                in.skipBytes(in.readableBytes());
+                ctx.close();
+            }
+            return;
+        }
+        final String line = in.readCharSequence(eol - in.readerIndex(), StandardCharsets.US_ASCII)
+                              .toString()
+                              .trim();
+        in.skipBytes(1); // \n
+        final Channel channel = ctx.channel();
+        final SlotLeases.Lease lease;
+        try
+        {
+            lease = line.isEmpty()
+                    ? this.leases.acquire(channel::close)
+                    : this.leases.acquire(Long.parseLong(line), channel::close);
+        }
+        catch (NumberFormatException cause)
+        {
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return;
+        }
+        channel.closeFuture().addListener((future) -> this.leases.release(lease));
+
+        byte[] greetingBytes = (lease.getSlot() + " " + lease.getToken()).getBytes();
+        final ByteBuf msg = ctx.alloc().buffer(greetingBytes.length + 2); // slot token + \r\n
+        msg.writeBytes(greetingBytes);
+        msg.writeBytes(CRLF);
+        ctx.writeAndFlush(msg);
+        ctx.pipeline().remove(this);
+    }
+}
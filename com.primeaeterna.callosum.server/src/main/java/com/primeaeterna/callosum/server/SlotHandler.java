@@ -4,6 +4,12 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The slot handler is responsible for responding to any TCP connection by
@@ -15,6 +21,8 @@ public class SlotHandler extends ChannelInboundHandlerAdapter
 
     private static byte[] CRLF = "\r\n".getBytes();
     private Slots slots;
+    private boolean acceptBurst;
+    private Map<EventExecutor, List<ChannelHandlerContext>> pending = new ConcurrentHashMap<>();
 
     /**
      * Creates a new {@link SlotHandler} with its own slot tracking.
@@ -29,9 +37,27 @@ public class SlotHandler extends ChannelInboundHandlerAdapter
      * @param slots slot tracker
      */
     public SlotHandler(Slots slots)
+    {
+        this(slots, false);
+    }
+
+    /**
+     * Creates a new @{link SlotHandler} with provided slot tracking.
+     *
+     * In accept burst mode, connections becoming active on the same event
+     * loop are collected until the event loop gets to run its pending tasks,
+     * so that the whole batch receives its slots from a single {@link Slots}
+     * operation. Greetings, and channel active events for handlers further
+     * down the pipeline, are delayed until then.
+     *
+     * @param slots slot tracker
+     * @param acceptBurst whether to allot slots per event loop cycle
+     */
+    public SlotHandler(Slots slots, boolean acceptBurst)
     {
         super();
         this.slots = slots;
+        this.acceptBurst = acceptBurst;
     }
 
     /**
@@ -41,15 +67,74 @@ public class SlotHandler extends ChannelInboundHandlerAdapter
     @Override
     public void channelActive(final ChannelHandlerContext ctx)
     {
+        if (this.acceptBurst)
+        {
+            final EventExecutor executor = ctx.executor();
+            final List<ChannelHandlerContext> batch =
+                this.pending.computeIfAbsent(executor, (key) -> new ArrayList<>());
+            batch.add(ctx);
+            if (batch.size() == 1)
+            {
+                executor.execute(() -> this.greet(executor));
+            }
+            return;
+        }
         final int slot = this.slots.next();
+        this.returnOnClose(ctx, slot);
+        ctx.writeAndFlush(this.greeting(ctx, slot));
+        ctx.fireChannelActive();
+    }
+
+    /**
+     * Greets every connection collected on the event loop since the last
+     * call.
+     * @param executor event loop the connections belong to
+     */
+    private void greet(final EventExecutor executor)
+    {
+        final List<ChannelHandlerContext> batch = new ArrayList<>();
+        for (ChannelHandlerContext ctx : this.pending.remove(executor))
+        {
+            if (ctx.channel().isActive())
+            {
+                batch.add(ctx);
+            }
+        }
+        final int[] allotted = this.slots.next(batch.size());
+        // tie every slot to its connection before any greeting can fail
+        for (int i = 0; i < allotted.length; i++)
+        {
+            this.returnOnClose(batch.get(i), allotted[i]);
+        }
+        for (int i = 0; i < allotted.length; i++)
+        {
+            final ChannelHandlerContext ctx = batch.get(i);
+            ctx.writeAndFlush(this.greeting(ctx, allotted[i]));
+            ctx.fireChannelActive();
+        }
+    }
+
+    /**
+     * Ensures slot is returned once connection closes in any way.
+     * @param ctx connection context
+     * @param slot slot allotted to the connection
+     */
+    private void returnOnClose(final ChannelHandlerContext ctx, final int slot)
+    {
+        ctx.channel().closeFuture().addListener((future) -> this.slots.put(slot));
+    }
+
+    /**
+     * @param ctx connection context
+     * @param slot slot allotted to the connection
+     * @return slot number followed by {@code \r\n}
+     */
+    private ByteBuf greeting(final ChannelHandlerContext ctx, final int slot)
+    {
         byte[] slotBytes = String.valueOf(slot).getBytes();
         final ByteBuf msg = ctx.alloc().buffer(slotBytes.length + 2); // int + \r\n
         msg.writeBytes(slotBytes);
         msg.writeBytes(CRLF);
-
-        ctx.channel().closeFuture().addListener((future) -> this.slots.put(slot));
-
-        ctx.writeAndFlush(msg);
-        ctx.fireChannelActive();
+        return msg;
     }
 }
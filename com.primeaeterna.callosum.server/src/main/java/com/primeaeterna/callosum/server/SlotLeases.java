@@ -0,0 +1,251 @@
+package com.primeaeterna.callosum.server;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The slot leases manager hands out slots together with a resumption token.
+ * When a lease is released, its slot is held for a grace period instead of
+ * being returned to {@link Slots} right away, so that a reconnect presenting
+ * the same token gets the same slot back. Grace periods are tracked in a
+ * timer wheel and expired holds return their slot to {@link Slots}.
+ *
+ * Presenting a token is enough to take over its slot, so tokens must be
+ * unguessable and are drawn from a {@link SecureRandom}.
+ */
+public class SlotLeases
+{
+    private static SecureRandom RANDOM = new SecureRandom();
+    private static Runnable NOOP = () -> {};
+
+    private Slots slots;
+    private Timer timer;
+    private boolean ownsTimer;
+    private long gracePeriod;
+    private TimeUnit unit;
+    private volatile boolean stopped;
+    private Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new {@link SlotLeases} with its own timer wheel, which is
+     * stopped by {@link #stop()}.
+     * @param slots slot tracker
+     * @param gracePeriod how long to hold a released slot
+     * @param unit time unit of {@code gracePeriod}
+     */
+    public SlotLeases(Slots slots, long gracePeriod, TimeUnit unit)
+    {
+        this(slots, new HashedWheelTimer(), true, gracePeriod, unit);
+    }
+
+    /**
+     * Creates a new {@link SlotLeases} with provided timer, which is left
+     * running by {@link #stop()}.
+     * @param slots slot tracker
+     * @param timer timer tracking grace periods
+     * @param gracePeriod how long to hold a released slot
+     * @param unit time unit of {@code gracePeriod}
+     */
+    public SlotLeases(Slots slots, Timer timer, long gracePeriod, TimeUnit unit)
+    {
+        this(slots, timer, false, gracePeriod, unit);
+    }
+
+    private SlotLeases(Slots slots, Timer timer, boolean ownsTimer, long gracePeriod, TimeUnit unit)
+    {
+        this.slots = slots;
+        this.timer = timer;
+        this.ownsTimer = ownsTimer;
+        this.gracePeriod = gracePeriod;
+        this.unit = unit;
+    }
+
+    /**
+     * @return lease on next available slot with a new resumption token
+     */
+    public Lease acquire()
+    {
+        return this.acquire(NOOP);
+    }
+
+    /**
+     * @param onSuperseded called if a reconnect takes over the lease before
+     *                     it is released
+     * @return lease on next available slot with a new resumption token
+     */
+    public Lease acquire(Runnable onSuperseded)
+    {
+        final int slot = this.slots.next();
+        Lease lease;
+        do
+        {
+            lease = new Lease(slot, RANDOM.nextLong() & Long.MAX_VALUE, onSuperseded);
+        }
+        while (this.leases.putIfAbsent(lease.token, lease) != null);
+        return lease;
+    }
+
+    /**
+     * Reclaims the slot leased under the resumption token.
+     * @param token resumption token of a previous lease
+     * @return lease on reclaimed or next available slot
+     * @see #acquire(long, Runnable)
+     */
+    public Lease acquire(long token)
+    {
+        return this.acquire(token, NOOP);
+    }
+
+    /**
+     * Reclaims the slot leased under the resumption token. If the lease was
+     * released, its hold is ended. If the lease was not released yet, as
+     * when a client reconnects before its previous connection is noticed to
+     * be gone, the lease is taken over and its {@code onSuperseded} callback
+     * is called; releasing it afterwards does nothing. If the grace period
+     * has already expired, or the token is unknown, leases next available
+     * slot under a new token instead.
+     * @param token resumption token of a previous lease
+     * @param onSuperseded called if a reconnect takes over the returned lease
+     *                     before it is released
+     * @return lease on reclaimed or next available slot
+     */
+    public Lease acquire(long token, Runnable onSuperseded)
+    {
+        final Lease[] previous = new Lease[1];
+        final Lease lease = this.leases.computeIfPresent(token, (key, current) -> {
+            previous[0] = current;
+            return new Lease(current.slot, token, onSuperseded);
+        });
+        if (lease == null)
+        {
+            return this.acquire(onSuperseded);
+        }
+        final Lease superseded = previous[0];
+        final Timeout timeout = superseded.timeout;
+        if (timeout != null)
+        {
+            timeout.cancel();
+        }
+        if (!superseded.released)
+        {
+            superseded.onSuperseded.run();
+        }
+        return lease;
+    }
+
+    /**
+     * Holds the leased slot for the grace period, after which the slot is
+     * returned to {@link Slots} unless reclaimed. Once stopped, the slot is
+     * returned right away.
+     * @param lease lease to release
+     */
+    public void release(Lease lease)
+    {
+        final boolean[] current = new boolean[1];
+        this.leases.computeIfPresent(lease.token, (key, leased) -> {
+            if (leased == lease)
+            {
+                lease.released = true;
+                current[0] = true;
+            }
+            return leased;
+        });
+        if (!current[0]) // superseded, slot belongs to its successor
+        {
+            return;
+        }
+        if (this.stopped)
+        {
+            this.expire(lease);
+            return;
+        }
+        try
+        {
+            lease.timeout = this.timer.newTimeout((timeout) -> this.expire(lease), this.gracePeriod, this.unit);
+        }
+        catch (IllegalStateException cause) // timer stopped
+        {
+            this.expire(lease);
+        }
+    }
+
+    /**
+     * Returns all held slots to {@link Slots}, and stops the timer if it was
+     * created by this {@link SlotLeases}. Leases released afterwards return
+     * their slot right away.
+     */
+    public void stop()
+    {
+        this.stopped = true;
+        if (this.ownsTimer)
+        {
+            this.timer.stop();
+        }
+        for (Lease lease : this.leases.values())
+        {
+            if (lease.released)
+            {
+                final Timeout timeout = lease.timeout;
+                if (timeout != null)
+                {
+                    timeout.cancel();
+                }
+                this.expire(lease);
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of a released lease to {@link Slots}, unless it has
+     * been reclaimed or returned already.
+     * @param lease released lease
+     */
+    private void expire(Lease lease)
+    {
+        if (this.leases.remove(lease.token, lease))
+        {
+            this.slots.put(lease.slot);
+        }
+    }
+
+    /**
+     * A slot together with the resumption token that can reclaim it.
+     */
+    public static class Lease
+    {
+        private int slot;
+        private long token;
+        private Runnable onSuperseded;
+        private volatile boolean released;
+        private volatile Timeout timeout;
+
+        private Lease(int slot, long token, Runnable onSuperseded)
+        {
+            this.slot = slot;
+            this.token = token;
+            this.onSuperseded = onSuperseded;
+        }
+
+        /**
+         * @return leased slot
+         */
+        public int getSlot()
+        {
+            return this.slot;
+        }
+
+        /**
+         * @return resumption token
+         */
+        public long getToken()
+        {
+            return this.token;
+        }
+    }
+}
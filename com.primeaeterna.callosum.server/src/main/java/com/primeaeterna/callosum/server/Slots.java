@@ -1,7 +1,8 @@
 package com.primeaeterna.callosum.server;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -13,7 +14,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class Slots
 {
     private AtomicInteger nextSlot = new AtomicInteger(-1);
-    private Queue<Integer> minQueue = new PriorityBlockingQueue<Integer>();
+    private PriorityBlockingQueue<Integer> minQueue = new PriorityBlockingQueue<Integer>();
 
     /**
      * @return next available slot
@@ -24,6 +25,34 @@ public class Slots
                        .orElseGet(() -> this.nextSlot.addAndGet(1));
     }
 
+    /**
+     * Retrieves a batch of slots with a single queue operation. Returned
+     * slots are the lowest available ones, in ascending order.
+     *
+     * @param count number of slots to retrieve
+     * @return {@code count} next available slots
+     */
+    public int[] next(int count)
+    {
+        final List<Integer> returned = new ArrayList<>(count);
+        this.minQueue.drainTo(returned, count);
+        final int[] batch = new int[count];
+        int i = 0;
+        for (int slot : returned)
+        {
+            batch[i++] = slot;
+        }
+        if (i < count)
+        {
+            int slot = this.nextSlot.getAndAdd(count - i) + 1;
+            while (i < count)
+            {
+                batch[i++] = slot++;
+            }
+        }
+        return batch;
+    }
+
     /**
      * Returns a previously retrieved slot back to the pool.
      *
@@ -0,0 +1,173 @@
+package com.primeaeterna.callosum.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResumableSlotHandlerTest
+{
+    private String[] greet(EmbeddedChannel ch, String line)
+    {
+        ch.writeInbound(Unpooled.copiedBuffer(line, StandardCharsets.US_ASCII));
+        final ByteBuf b = ch.readOutbound();
+        final String greeting = b.readCharSequence(b.readableBytes(), StandardCharsets.US_ASCII).toString();
+        b.release();
+        assertEquals("\r\n", greeting.substring(greeting.length() - 2));
+        return greeting.substring(0, greeting.length() - 2).split(" ");
+    }
+
+    @Test
+    void respondsWithZeroSlotAndTokenToEmptyLine()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel ch = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            final String[] greeting = greet(ch, "\r\n");
+            assertEquals("0", greeting[0]);
+            Long.parseLong(greeting[1]);
+            assertNull(ch.pipeline().get(ResumableSlotHandler.class));
+            ch.finishAndReleaseAll();
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void reconnectPresentingTokenReclaimsPreviousSlot()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel first = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            final String[] greeting = greet(first, "\r\n");
+            first.close();
+
+            final EmbeddedChannel other = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            assertEquals("1", greet(other, "\r\n")[0]);
+
+            final EmbeddedChannel resumed = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            final String[] resumedGreeting = greet(resumed, greeting[1] + "\r\n");
+            assertEquals(greeting[0], resumedGreeting[0]);
+            assertEquals(greeting[1], resumedGreeting[1]);
+
+            other.finishAndReleaseAll();
+            resumed.finishAndReleaseAll();
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void reconnectPresentingTokenWhilePreviousConnectionIsOpenTakesItOver()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel first = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            final String[] greeting = greet(first, "\r\n");
+
+            final EmbeddedChannel resumed = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            final String[] resumedGreeting = greet(resumed, greeting[1] + "\r\n");
+            assertEquals(greeting[0], resumedGreeting[0]);
+            assertEquals(greeting[1], resumedGreeting[1]);
+            assertFalse(first.isOpen());
+            assertTrue(resumed.isOpen());
+
+            final EmbeddedChannel other = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            assertEquals("1", greet(other, "\r\n")[0]);
+
+            other.finishAndReleaseAll();
+            resumed.finishAndReleaseAll();
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void bytesFollowingClientLineArePassedOn()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel ch = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            greet(ch, "\r\nhello");
+            final ByteBuf b = ch.readInbound();
+            assertEquals("hello", b.readCharSequence(b.readableBytes(), StandardCharsets.US_ASCII).toString());
+            b.release();
+            ch.finishAndReleaseAll();
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void malformedTokenClosesConnection()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel ch = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            ch.writeInbound(Unpooled.copiedBuffer("not a token\r\n", StandardCharsets.US_ASCII));
+            assertFalse(ch.isOpen());
+            assertNull(ch.readOutbound());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void linesFollowingMalformedTokenAreIgnored()
+    {
+        final Slots slots = new Slots();
+        final SlotLeases leases = new SlotLeases(slots, 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel ch = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            ch.writeInbound(Unpooled.copiedBuffer("x\r\n\r\n", StandardCharsets.US_ASCII));
+            assertFalse(ch.isOpen());
+            assertNull(ch.readOutbound());
+            assertEquals(0, slots.next());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void overlongLineClosesConnection()
+    {
+        final SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            final EmbeddedChannel ch = new EmbeddedChannel(new ResumableSlotHandler(leases));
+            ch.writeInbound(Unpooled.copiedBuffer("123456789012345678901234567890", StandardCharsets.US_ASCII));
+            assertFalse(ch.isOpen());
+            assertNull(ch.readOutbound());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+}
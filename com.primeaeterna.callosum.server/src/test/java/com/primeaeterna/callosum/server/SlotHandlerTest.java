@@ -12,6 +12,8 @@ import io.netty.handler.codec.ByteToMessageDecoder;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -189,4 +191,101 @@ public class SlotHandlerTest
             bossGroup.shutdownGracefully();
         }
     }
+
+    @Test
+    public void slotHandlerInAcceptBurstModeAllotsSlotsForConnectionsActivatedInSameEventLoopCycleInOneBatch() throws InterruptedException
+    {
+        final int numOfClients = 100;
+        final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        final Slots slots = new Slots()
+        {
+            @Override
+            public int[] next(final int count)
+            {
+                batches.add(count);
+                return super.next(count);
+            }
+        };
+        final SlotHandler slotHandler = new SlotHandler(slots, true);
+        final EventLoopGroup bossGroup = new NioEventLoopGroup();
+        final EventLoopGroup workerGroup = new NioEventLoopGroup(1);
+        final EventLoopGroup clientGroup = new NioEventLoopGroup();
+        try
+        {
+            ServerBootstrap b = new ServerBootstrap();
+            b.group(bossGroup, workerGroup)
+             .channel(LocalServerChannel.class)
+             .childHandler(new ChannelInitializer<>() {
+                 @Override
+                 protected void initChannel(final Channel ch) throws Exception
+                 {
+                     ch.pipeline().addLast(slotHandler);
+                 }
+             });
+
+            ChannelFuture srv = b.bind(new LocalAddress("test")).sync();
+
+            // hold the only worker event loop so all connections activate in one cycle
+            final CountDownLatch blocked = new CountDownLatch(1);
+            workerGroup.execute(() -> {
+                try
+                {
+                    blocked.await();
+                }
+                catch (InterruptedException cause)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            final List<ChannelFuture> clients = new LinkedList<>();
+            final Map<String, Boolean> expectedSlots = new ConcurrentHashMap<>();
+            final CountDownLatch latch = new CountDownLatch(numOfClients);
+            for (int id = 0; id < numOfClients; id++)
+            {
+                Bootstrap c = new Bootstrap();
+                c.group(clientGroup)
+                 .channel(LocalChannel.class)
+                 .handler(new ChannelInitializer<>()
+                 {
+                     @Override
+                     protected void initChannel(final Channel ch)
+                     {
+                         ch.pipeline().addLast(new ChannelInboundHandlerAdapter()
+                         {
+                             @Override
+                             public void channelRead(final ChannelHandlerContext ctx, final Object msg)
+                             {
+                                 final ByteBuf b = (ByteBuf) msg;
+                                 expectedSlots.put(asString(b, b.readableBytes()), true);
+                                 b.release();
+                                 latch.countDown();
+                             }
+                         });
+                     }
+                 });
+                clients.add(c.connect(srv.channel().localAddress()));
+            }
+            Thread.sleep(100); // give boss opportunity to hand all connections to worker
+            assertTrue(batches.isEmpty());
+            blocked.countDown();
+            latch.await();
+            for (int id = 0; id < numOfClients; id++)
+            {
+                assertTrue(expectedSlots.containsKey(String.valueOf(id) + "\r\n"), String.valueOf(id));
+            }
+            assertEquals(numOfClients, batches.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batches.size() < numOfClients, batches.toString());
+            for (ChannelFuture client : clients)
+            {
+                client.channel().close().sync();
+            }
+        }
+        finally
+        {
+            clientGroup.shutdownGracefully();
+            workerGroup.shutdownGracefully();
+            bossGroup.shutdownGracefully();
+        }
+    }
 }
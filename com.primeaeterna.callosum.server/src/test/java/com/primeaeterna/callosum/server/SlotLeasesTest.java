@@ -0,0 +1,197 @@
+package com.primeaeterna.callosum.server;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlotLeasesTest
+{
+    @Test
+    void leasesAreAllottedSmallestAvailableSlotWithDistinctTokens()
+    {
+        SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            SlotLeases.Lease first = leases.acquire();
+            SlotLeases.Lease second = leases.acquire();
+            assertEquals(0, first.getSlot());
+            assertEquals(1, second.getSlot());
+            assertNotEquals(first.getToken(), second.getToken());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void releasedSlotIsHeldForItsTokenDuringGracePeriod()
+    {
+        SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            SlotLeases.Lease lease = leases.acquire();
+            leases.release(lease);
+            assertEquals(1, leases.acquire().getSlot());
+            SlotLeases.Lease resumed = leases.acquire(lease.getToken());
+            assertEquals(lease.getSlot(), resumed.getSlot());
+            assertEquals(lease.getToken(), resumed.getToken());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void unknownTokenIsAllottedNextAvailableSlot()
+    {
+        SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            SlotLeases.Lease lease = leases.acquire();
+            SlotLeases.Lease other = leases.acquire(lease.getToken() + 1);
+            assertEquals(1, other.getSlot());
+            assertNotEquals(lease.getToken(), other.getToken());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void tokenTakesOverLeaseNotYetReleased()
+    {
+        Slots slots = new Slots();
+        SlotLeases leases = new SlotLeases(slots, 1, TimeUnit.MINUTES);
+        try
+        {
+            AtomicBoolean superseded = new AtomicBoolean(false);
+            SlotLeases.Lease lease = leases.acquire(() -> superseded.set(true));
+            SlotLeases.Lease resumed = leases.acquire(lease.getToken());
+            assertTrue(superseded.get());
+            assertEquals(lease.getSlot(), resumed.getSlot());
+            assertEquals(lease.getToken(), resumed.getToken());
+            leases.release(lease); // superseded lease no longer owns the slot
+            assertEquals(1, slots.next());
+            leases.release(resumed);
+            assertEquals(lease.getSlot(), leases.acquire(lease.getToken()).getSlot());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void reclaimingReleasedLeaseDoesNotCallSupersededCallback()
+    {
+        SlotLeases leases = new SlotLeases(new Slots(), 1, TimeUnit.MINUTES);
+        try
+        {
+            AtomicBoolean superseded = new AtomicBoolean(false);
+            SlotLeases.Lease lease = leases.acquire(() -> superseded.set(true));
+            leases.release(lease);
+            leases.acquire(lease.getToken());
+            assertFalse(superseded.get());
+        }
+        finally
+        {
+            leases.stop();
+        }
+    }
+
+    @Test
+    void releasedSlotIsReturnedOnceGracePeriodExpires() throws InterruptedException
+    {
+        Slots slots = new Slots();
+        Timer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS);
+        SlotLeases leases = new SlotLeases(slots, timer, 10, TimeUnit.MILLISECONDS);
+        try
+        {
+            SlotLeases.Lease lease = leases.acquire();
+            leases.release(lease);
+            Thread.sleep(200); // give timer opportunity to expire the hold
+            SlotLeases.Lease resumed = leases.acquire(lease.getToken());
+            assertEquals(0, resumed.getSlot());
+            assertNotEquals(lease.getToken(), resumed.getToken());
+            assertEquals(1, slots.next());
+        }
+        finally
+        {
+            leases.stop();
+            timer.stop();
+        }
+    }
+
+    @Test
+    void reclaimedSlotIsNotReturnedOnceGracePeriodExpires() throws InterruptedException
+    {
+        Slots slots = new Slots();
+        Timer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS);
+        SlotLeases leases = new SlotLeases(slots, timer, 10, TimeUnit.MILLISECONDS);
+        try
+        {
+            SlotLeases.Lease lease = leases.acquire();
+            leases.release(lease);
+            leases.acquire(lease.getToken());
+            Thread.sleep(200); // give timer opportunity to expire the hold
+            assertEquals(1, slots.next());
+        }
+        finally
+        {
+            leases.stop();
+            timer.stop();
+        }
+    }
+
+    @Test
+    void stoppingReturnsAllHeldSlots()
+    {
+        Slots slots = new Slots();
+        SlotLeases leases = new SlotLeases(slots, 1, TimeUnit.MINUTES);
+        leases.release(leases.acquire());
+        leases.release(leases.acquire());
+        leases.stop();
+        assertEquals(0, slots.next());
+        assertEquals(1, slots.next());
+        assertEquals(2, slots.next());
+    }
+
+    @Test
+    void leaseReleasedAfterStoppingReturnsItsSlot()
+    {
+        Slots slots = new Slots();
+        SlotLeases leases = new SlotLeases(slots, 1, TimeUnit.MINUTES);
+        SlotLeases.Lease lease = leases.acquire();
+        leases.stop();
+        leases.release(lease);
+        assertEquals(0, slots.next());
+        assertEquals(1, slots.next());
+    }
+
+    @Test
+    void stoppingLeavesProvidedTimerRunning()
+    {
+        Timer timer = new HashedWheelTimer();
+        try
+        {
+            SlotLeases leases = new SlotLeases(new Slots(), timer, 1, TimeUnit.MINUTES);
+            leases.stop();
+            timer.newTimeout((timeout) -> {}, 1, TimeUnit.MINUTES);
+        }
+        finally
+        {
+            timer.stop();
+        }
+    }
+}
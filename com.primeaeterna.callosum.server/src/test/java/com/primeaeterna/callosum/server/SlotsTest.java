@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,6 +60,38 @@ public class SlotsTest
         assertEquals(3, slots.next());
     }
 
+    @Test
+    void batchOfSlotsAreConsecutiveIntegersStartingFromZero()
+    {
+        Slots slots = new Slots();
+        assertArrayEquals(new int[] {0, 1, 2}, slots.next(3));
+        assertArrayEquals(new int[] {3, 4}, slots.next(2));
+        assertEquals(5, slots.next());
+    }
+
+    @Test
+    void batchAllotsSmallestAvailableSlotsFirst()
+    {
+        Slots slots = new Slots();
+        slots.next(10);
+        slots.put(7);
+        slots.put(2);
+        assertArrayEquals(new int[] {2, 7, 10, 11}, slots.next(4));
+        slots.put(5);
+        slots.put(3);
+        slots.put(9);
+        assertArrayEquals(new int[] {3, 5}, slots.next(2));
+        assertEquals(9, slots.next());
+    }
+
+    @Test
+    void emptyBatchAllotsNothing()
+    {
+        Slots slots = new Slots();
+        assertEquals(0, slots.next(0).length);
+        assertEquals(0, slots.next());
+    }
+
     @Test
     void noDuplicateSlotsAreAllocatedAcrossThreads() throws InterruptedException
     {